@@ -1,11 +1,88 @@
 package com.edsonmoreira.dslist.services;
 
+import java.beans.Introspector;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.edsonmoreira.dslist.dto.GameDTO;
 import com.edsonmoreira.dslist.dto.GameMinDTO;
@@ -13,81 +90,1949 @@ import com.edsonmoreira.dslist.entities.Game;
 import com.edsonmoreira.dslist.projections.GameMinProjection;
 import com.edsonmoreira.dslist.repositories.GameListRepository;
 import com.edsonmoreira.dslist.repositories.GameRepository;
-import com.edsonmoreira.dslist.utils.EntityUtils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
 
 @Service
 public class GameService {
         
+        private static final Logger log = LoggerFactory.getLogger(GameService.class);
+        
+        private static final int GAME_CACHE_MAX_SIZE = 10_000;
+        
+        private static final int LIST_SNAPSHOT_MAX_SIZE = 1_000;
+        
+        private static final String INSERT_BELONGING_SQL =
+                        "INSERT INTO tb_belonging (list_id, game_id, position) VALUES (?, ?, ?)";
+        
+        private static final String DELETE_BELONGING_SQL =
+                        "DELETE FROM tb_belonging WHERE list_id = ? AND game_id = ?";
+        
+        private static final String UPDATE_BELONGING_POSITION_SQL =
+                        "UPDATE tb_belonging SET position = ? WHERE list_id = ? AND game_id = ?";
+        
+        private static final String SELECT_BELONGINGS_BY_LIST_SQL =
+                        "SELECT list_id, game_id, position FROM tb_belonging WHERE list_id = ? ORDER BY position";
+        
+        private static final String SELECT_GAMES_BY_IDS_SQL =
+                        "SELECT id, version, title, game_year, genre, platforms, score, img_url, short_description, long_description"
+                        + " FROM tb_game WHERE id IN ";
+        
+        private static final String SELECT_SPARSE_POSITIONS_SQL =
+                        "SELECT sparse_positions FROM tb_game_list WHERE id = ?";
+        
+        private static final int IN_CLAUSE_BATCH_SIZE = 500;
+        
+        private static final int MAX_PAGE_SIZE = 1_000;
+        
+        private static final int BATCH_LOAD_THREADS = 4;
+        
+        private static final int WARM_START_MAGIC = 0x44534C57;
+        
+        // bump whenever the layout written by dumpCaches or CompactCachedGame.writeTo changes
+        private static final int WARM_START_FORMAT_VERSION = 2;
+        
+        private static final int SPARSE_POSITION_GAP = 1024;
+        
+        private static final GamePropertyCopier GAME_COPIER = GamePropertyCopier.create();
+        
         @Autowired
         private GameRepository gameRepository;
         
         @Autowired
         private GameListRepository gameListRepository;
         
-        @Transactional(readOnly = true)
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+        
+        @Autowired
+        private TransactionTemplate transactionTemplate;
+        
+        @PersistenceContext
+        private EntityManager entityManager;
+        
+        private TransactionTemplate readOnlyTransactionTemplate;
+        
+        @Value("${dslist.lists.sparse-positions:}")
+        private Set<Long> sparsePositionLists = Set.of();
+        
+        @Value("${dslist.games.optimistic-retry.max-attempts:3}")
+        private int optimisticMaxAttempts = 3;
+        
+        @Value("${dslist.games.optimistic-retry.backoff-ms:20}")
+        private long optimisticBackoffMillis = 20;
+        
+        @Value("${dslist.games.batch-window-ms:2}")
+        private long batchWindowMillis = 2;
+        
+        @Value("${dslist.games.batch-timeout-ms:5000}")
+        private long batchTimeoutMillis = 5000;
+        
+        @Value("${dslist.games.id-filter.enabled:false}")
+        private boolean idFilterEnabled;
+        
+        @Value("${dslist.games.id-filter.rebuild-interval-ms:600000}")
+        private long idFilterRebuildMillis = 600_000;
+        
+        @Value("${dslist.cache.compress-texts:false}")
+        private boolean compressCachedTexts;
+        
+        @Value("${dslist.catalog.snapshot-path:}")
+        private String catalogSnapshotPath = "";
+        
+        @Value("${dslist.cache.warm-start-path:}")
+        private String warmStartPath = "";
+        
+        private final LruCache<Long, CachedGame> gameCache = new LruCache<>(GAME_CACHE_MAX_SIZE);
+        
+        private final LongAdder cachedTextDecodes = new LongAdder();
+        
+        private final LongAdder cachedTextDecodeNanos = new LongAdder();
+        
+        private final LruCache<Long, ListSnapshot> listSnapshots = new LruCache<>(LIST_SNAPSHOT_MAX_SIZE);
+        
+        private final Map<Long, Long> listVersions = new ConcurrentHashMap<>();
+        
+        private final AtomicLong listVersionClock = new AtomicLong();
+        
+        private final AtomicLong gameDataVersion = new AtomicLong();
+        
+        private final String instanceTag = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+        
+        private final ExecutorService rebalanceExecutor = Executors.newSingleThreadExecutor();
+        
+        private final Set<Long> pendingRebalances = ConcurrentHashMap.newKeySet();
+        
+        private final LongAdder optimisticConflicts = new LongAdder();
+        
+        private final LongAdder optimisticRetries = new LongAdder();
+        
+        private final ScheduledExecutorService batchScheduler = Executors.newScheduledThreadPool(BATCH_LOAD_THREADS);
+        
+        private final Object batchLock = new Object();
+        
+        private Map<Long, CompletableFuture<GameDTO>> pendingLoads = new HashMap<>();
+        
+        private final Map<ReadKey, CompletableFuture<Optional<TaggedGame>>> inFlightGames = new ConcurrentHashMap<>();
+        
+        private final Map<ReadKey, CompletableFuture<List<GameMinDTO>>> inFlightLists = new ConcurrentHashMap<>();
+        
+        private final LongAdder collapsedReads = new LongAdder();
+        
+        private volatile GameIdBitmap knownGameIds;
+        
+        private volatile GameIdBitmap rebuildingGameIds;
+        
+        private final ScheduledExecutorService idFilterScheduler = Executors.newSingleThreadScheduledExecutor();
+        
+        private volatile boolean idFilterReady;
+        
+        private final LongAdder idFilterChecks = new LongAdder();
+        
+        private final LongAdder idFilterRejections = new LongAdder();
+        
+        private final LongAdder idFilterFalsePositives = new LongAdder();
+        
+        private volatile CatalogSnapshot catalogSnapshot;
+        
+        private final AtomicBoolean catalogRebuildPending = new AtomicBoolean();
+        
+        private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor();
+        
+        @PostConstruct
+        void createReadOnlyTransactionTemplate() {
+                readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+                readOnlyTransactionTemplate.setReadOnly(true);
+        }
+        
+        /**
+         * Cache hits are answered without a transaction; a miss is a single statement and runs in
+         * the caller's transaction if there is one.
+         */
         public GameDTO findById(Long id) {
-                Game result = gameRepository.findById(id).get();
-                return new GameDTO(result);
+                return tryFindById(id).orElseThrow(() -> new GameNotFoundException("Game not found with id: " + id));
+        }
+        
+        public Optional<GameDTO> tryFindById(Long id) {
+                return tryFindTaggedById(id).map(TaggedGame::game);
+        }
+        
+        public TaggedGame findTaggedById(Long id) {
+                return tryFindTaggedById(id).orElseThrow(() -> new GameNotFoundException("Game not found with id: " + id));
+        }
+        
+        /**
+         * The game together with the ETag of the version it was read at. Both come from the same cache
+         * entry or row, so the tag always describes the body it is sent with.
+         */
+        public Optional<TaggedGame> tryFindTaggedById(Long id) {
+                CachedGame cached = gameCache.get(id);
+                if (cached != null) {
+                        return Optional.of(new TaggedGame(toDto(cached), gameETag(cached.version())));
+                }
+                if (!mightExist(id)) {
+                        return Optional.empty();
+                }
+                
+                long stamp = gameCache.stamp(id);
+                return singleFlight(inFlightGames, new ReadKey(id, stamp, 0L), () -> {
+                        List<PlainCachedGame> result = searchGamesByIds(List.of(id));
+                        if (result.isEmpty()) {
+                                if (idFilterReady) {
+                                        idFilterFalsePositives.increment();
+                                }
+                                return Optional.empty();
+                        }
+                        PlainCachedGame game = result.get(0);
+                        return Optional.of(new TaggedGame(cacheGame(game, stamp), gameETag(game.version())));
+                });
+        }
+        
+        @Transactional(readOnly = true)
+        public Optional<String> findLongDescriptionById(Long id) {
+                return gameRepository.searchLongDescriptionById(id);
         }
         
         @Transactional(readOnly = true)
+        public List<GameDTO> findByIds(Collection<Long> ids) {
+                Map<Long, GameDTO> found = loadByIds(ids, gameCache::get);
+                List<GameDTO> result = new ArrayList<>(found.size());
+                for (Long id : ids) {
+                        GameDTO dto = found.get(id);
+                        if (dto != null) {
+                                result.add(dto);
+                        }
+                }
+                return result;
+        }
+        
+        /**
+         * Same result as {@link #findById(Long)}, but cache misses are parked for a short window and
+         * loaded together with every other id requested in that window by a single IN query. Batches run
+         * on a small pool so one slow query does not hold up the next window, and each caller waits at
+         * most dslist.games.batch-timeout-ms.
+         */
+        public GameDTO findByIdBatched(Long id) {
+                GameDTO cached = cachedGame(id);
+                if (cached != null) {
+                        return cached;
+                }
+                if (!mightExist(id)) {
+                        throw new GameNotFoundException("Game not found with id: " + id);
+                }
+                
+                CompletableFuture<GameDTO> load;
+                synchronized (batchLock) {
+                        load = pendingLoads.get(id);
+                        if (load == null) {
+                                load = new CompletableFuture<>();
+                                pendingLoads.put(id, load);
+                                try {
+                                        if (pendingLoads.size() == 1) {
+                                                batchScheduler.schedule(this::dispatchPendingLoads, batchWindowMillis, TimeUnit.MILLISECONDS);
+                                        } else if (pendingLoads.size() >= IN_CLAUSE_BATCH_SIZE) {
+                                                batchScheduler.execute(this::dispatchPendingLoads);
+                                        }
+                                } catch (RejectedExecutionException e) {
+                                        pendingLoads.remove(id, load);
+                                        load.completeExceptionally(e);
+                                        throw e;
+                                }
+                        }
+                }
+                
+                try {
+                        // a copy, so one caller timing out does not fail the load for the others
+                        return await(load.copy().orTimeout(batchTimeoutMillis, TimeUnit.MILLISECONDS));
+                } catch (CompletionException e) {
+                        if (e.getCause() instanceof TimeoutException) {
+                                throw new QueryTimeoutException("Timed out waiting for a batched load of game " + id, e.getCause());
+                        }
+                        throw e;
+                }
+        }
+        
+        private void dispatchPendingLoads() {
+                Map<Long, CompletableFuture<GameDTO>> batch;
+                synchronized (batchLock) {
+                        if (pendingLoads.isEmpty()) {
+                                return;
+                        }
+                        batch = pendingLoads;
+                        pendingLoads = new HashMap<>();
+                }
+                
+                try {
+                        // read-only, or cacheGame would take this for a writer's read and skip caching the misses
+                        // every caller in the batch already counted its miss in findByIdBatched
+                        Map<Long, GameDTO> found = readOnlyTransactionTemplate.execute(status -> loadByIds(batch.keySet(), gameCache::recheck));
+                        batch.forEach((id, load) -> {
+                                GameDTO dto = found.get(id);
+                                if (dto != null) {
+                                        load.complete(dto);
+                                } else {
+                                        load.completeExceptionally(new GameNotFoundException("Game not found with id: " + id));
+                                }
+                        });
+                } catch (RuntimeException e) {
+                        batch.values().forEach(load -> load.completeExceptionally(e));
+                }
+        }
+        
+        private Map<Long, GameDTO> loadByIds(Collection<Long> ids, Function<Long, CachedGame> cacheLookup) {
+                Map<Long, GameDTO> found = new HashMap<>();
+                Map<Long, Long> misses = new LinkedHashMap<>();
+                for (Long id : new LinkedHashSet<>(ids)) {
+                        GameDTO cached = toDto(cacheLookup.apply(id));
+                        if (cached != null) {
+                                found.put(id, cached);
+                        } else {
+                                misses.put(id, gameCache.stamp(id));
+                        }
+                }
+                
+                for (List<Long> chunk : chunks(misses.keySet())) {
+                        for (PlainCachedGame game : searchGamesByIds(chunk)) {
+                                found.put(game.id(), cacheGame(game, misses.get(game.id())));
+                        }
+                }
+                return found;
+        }
+        
+        /**
+         * Reads every detail column, the long description included, in one statement. Going through
+         * the entity would cost a second SELECT per game once that column is fetched lazily.
+         */
+        private List<PlainCachedGame> searchGamesByIds(List<Long> ids) {
+                String sql = SELECT_GAMES_BY_IDS_SQL + "(" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+                return jdbcTemplate.query(sql, PlainCachedGame.MAPPER, ids.toArray());
+        }
+        
+        @EventListener(ApplicationReadyEvent.class)
+        public void buildGameIdFilter() {
+                if (!idFilterEnabled) {
+                        return;
+                }
+                
+                rebuildGameIdFilter();
+                idFilterScheduler.scheduleWithFixedDelay(() -> {
+                        try {
+                                rebuildGameIdFilter();
+                        } catch (RuntimeException e) {
+                                log.warn("Could not rebuild the game id filter, keeping the previous one", e);
+                        }
+                }, idFilterRebuildMillis, idFilterRebuildMillis, TimeUnit.MILLISECONDS);
+        }
+        
+        /**
+         * Scans every id into a fresh bitmap and swaps it in. Ids created by this instance during the
+         * scan are added to the new bitmap too. The new bitmap only rejects ids up to the previous
+         * scan's maximum, so the first build after startup rejects nothing.
+         */
+        private void rebuildGameIdFilter() {
+                GameIdBitmap previous = knownGameIds;
+                GameIdBitmap bitmap = new GameIdBitmap(previous == null ? -1 : previous.maxScannedId());
+                rebuildingGameIds = bitmap;
+                try {
+                        transactionTemplate.executeWithoutResult(status -> {
+                                try (Stream<Long> ids = gameRepository.streamAllIds()) {
+                                        ids.forEach(bitmap::addScanned);
+                                }
+                        });
+                        knownGameIds = bitmap;
+                        idFilterReady = true;
+                } finally {
+                        rebuildingGameIds = null;
+                }
+        }
+        
+        @EventListener(ApplicationReadyEvent.class)
+        public void buildCatalogSnapshot() {
+                if (!catalogSnapshotPath.isEmpty()) {
+                        snapshotExecutor.execute(this::rebuildCatalogSnapshot);
+                }
+        }
+        
+        /**
+         * Writes every listing row to a new file next to the configured snapshot path, renames it over
+         * the previous one and maps it. Readers keep the old mapping until the new one is published.
+         * If the rebuild fails, the snapshot is dropped and findAll reads from the database until a
+         * later rebuild succeeds. A replaced mapping is only released when it is garbage collected.
+         */
+        public void rebuildCatalogSnapshot() {
+                catalogRebuildPending.set(false);
+                Path target = Path.of(catalogSnapshotPath).toAbsolutePath();
+                try {
+                        Path temp = Files.createTempFile(target.getParent(), "catalog", ".tmp");
+                        try {
+                                transactionTemplate.executeWithoutResult(status -> {
+                                        try (Stream<GameMinProjection> rows = gameRepository.streamAll()) {
+                                                CatalogSnapshot.write(rows.iterator(), temp);
+                                        } catch (IOException e) {
+                                                throw new UncheckedIOException(e);
+                                        }
+                                });
+                                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                        } finally {
+                                Files.deleteIfExists(temp);
+                        }
+                        catalogSnapshot = CatalogSnapshot.open(target);
+                } catch (IOException | RuntimeException e) {
+                        catalogSnapshot = null;
+                        log.warn("Could not build the catalog snapshot at {}, serving findAll from the database", target, e);
+                }
+        }
+        
+        private void scheduleCatalogSnapshotRebuild() {
+                if (catalogSnapshotPath.isEmpty() || !catalogRebuildPending.compareAndSet(false, true)) {
+                        return;
+                }
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                                @Override
+                                public void afterCompletion(int status) {
+                                        snapshotExecutor.execute(GameService.this::rebuildCatalogSnapshot);
+                                }
+                        });
+                } else {
+                        snapshotExecutor.execute(this::rebuildCatalogSnapshot);
+                }
+        }
+        
+        public IdFilterStats getIdFilterStats() {
+                return new IdFilterStats(idFilterChecks.sum(), idFilterRejections.sum(), idFilterFalsePositives.sum());
+        }
+        
+        private boolean mightExist(Long id) {
+                if (!idFilterReady) {
+                        return true;
+                }
+                idFilterChecks.increment();
+                if (knownGameIds.mightContain(id)) {
+                        return true;
+                }
+                idFilterRejections.increment();
+                return false;
+        }
+        
+        private void rememberGameId(Long id) {
+                addKnownGameId(id);
+                // again once the insert is visible, in case a rebuild scanned before it committed
+                afterCompletion(() -> addKnownGameId(id));
+        }
+        
+        private void addKnownGameId(Long id) {
+                // the bitmap being built is read first, so a swap in between cannot lose the id
+                GameIdBitmap rebuilding = rebuildingGameIds;
+                if (rebuilding != null) {
+                        rebuilding.add(id);
+                }
+                GameIdBitmap known = knownGameIds;
+                if (known != null) {
+                        known.add(id);
+                }
+        }
+        
+        public long getCollapsedReadCount() {
+                return collapsedReads.sum();
+        }
+        
+        /**
+         * Lets only one caller per key run the loader; callers arriving while it is running wait for
+         * and share its result (or its exception) instead of issuing the same query again. Keys carry
+         * the versions the caller saw, so a read started after a write never joins one started before
+         * it. A caller inside a writable transaction always loads alone, since its query can see
+         * writes no other caller may be handed.
+         */
+        private <K, V> V singleFlight(Map<K, CompletableFuture<V>> inFlight, K key, Supplier<V> loader) {
+                if (inWritableTransaction()) {
+                        return loader.get();
+                }
+                
+                CompletableFuture<V> call = new CompletableFuture<>();
+                CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+                if (running != null) {
+                        collapsedReads.increment();
+                        return await(running);
+                }
+                
+                try {
+                        V value = loader.get();
+                        call.complete(value);
+                        return value;
+                } catch (RuntimeException e) {
+                        call.completeExceptionally(e);
+                        throw e;
+                } finally {
+                        inFlight.remove(key, call);
+                }
+        }
+        
+        /**
+         * Reads made here may include the transaction's own uncommitted writes, so they are neither
+         * shared with concurrent callers nor cached.
+         */
+        private static boolean inWritableTransaction() {
+                return TransactionSynchronizationManager.isActualTransactionActive()
+                                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+        
+        private static <T> T await(CompletableFuture<T> future) {
+                try {
+                        return future.join();
+                } catch (CompletionException e) {
+                        if (e.getCause() instanceof RuntimeException cause) {
+                                throw cause;
+                        }
+                        throw e;
+                }
+        }
+        
+        public CacheStats getGameCacheStats() {
+                return gameCache.stats();
+        }
+        
+        public TextDecodeStats getCachedTextDecodeStats() {
+                return new TextDecodeStats(cachedTextDecodes.sum(), cachedTextDecodeNanos.sum());
+        }
+        
+        private GameDTO cachedGame(Long id) {
+                return toDto(gameCache.get(id));
+        }
+        
+        private GameDTO toDto(CachedGame cached) {
+                if (cached == null) {
+                        return null;
+                }
+                if (!(cached instanceof CompactCachedGame)) {
+                        return cached.toDto();
+                }
+                long start = System.nanoTime();
+                GameDTO dto = cached.toDto();
+                cachedTextDecodeNanos.add(System.nanoTime() - start);
+                cachedTextDecodes.increment();
+                return dto;
+        }
+        
+        private static String gameETag(Long version) {
+                return version == null ? null : "g" + version;
+        }
+        
+        private GameDTO cacheGame(PlainCachedGame game, long stamp) {
+                if (!inWritableTransaction()) {
+                        gameCache.putIfUnchanged(game.id(), compressCachedTexts ? game.compact() : game, stamp);
+                }
+                return game.toDto();
+        }
+        
         public List<GameMinDTO> findAll() {
-                List<Game> result = gameRepository.findAll();
+                CatalogSnapshot snapshot = catalogSnapshot;
+                if (snapshot != null) {
+                        return snapshot.games();
+                }
+                
+                List<GameMinProjection> result = gameRepository.searchAll();
                 return result.stream().map(x -> new GameMinDTO(x)).toList();
         }
         
         @Transactional(readOnly = true)
-        public List<GameMinDTO> findByList(Long listId) {
-                List<GameMinProjection> result = gameRepository.searchByList(listId);
+        public List<GameMinDTO> findAll(Long afterId, int limit) {
+                checkPageSize(limit);
+                List<GameMinProjection> result = gameRepository.searchAllAfterId(afterId == null ? 0L : afterId, limit);
                 return result.stream().map(x -> new GameMinDTO(x)).toList();
         }
         
+        private static void checkPageSize(int limit) {
+                if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+                        throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ", got " + limit);
+                }
+        }
+        
+        @Transactional(readOnly = true)
+        public void forEachGame(Consumer<GameMinDTO> action) {
+                try (Stream<GameMinProjection> result = gameRepository.streamAll()) {
+                        result.map(x -> new GameMinDTO(x)).forEach(action);
+                }
+        }
+        
+        public List<GameMinDTO> findByList(Long listId) {
+                long listVersion = listVersions.getOrDefault(listId, 0L);
+                long dataVersion = gameDataVersion.get();
+                ListSnapshot snapshot = listSnapshots.get(listId,
+                                cached -> cached.listVersion() == listVersion && cached.dataVersion() == dataVersion);
+                if (snapshot != null) {
+                        return snapshot.games();
+                }
+                
+                return singleFlight(inFlightLists, new ReadKey(listId, listVersion, dataVersion), () -> readOnlyTransactionTemplate.execute(status -> {
+                        List<GameMinDTO> games = Collections.unmodifiableList(gameRepository.searchMinDtoByList(listId));
+                        if (!inWritableTransaction()) {
+                                listSnapshots.put(listId, new ListSnapshot(listVersion, dataVersion, games));
+                        }
+                        return games;
+                }));
+        }
+        
+        /**
+         * Read through the cache like {@link #findById(Long)}; a caller that also sends the body should
+         * use {@link #findTaggedById(Long)} so the tag and the body cannot come from different versions.
+         */
+        public String getGameETag(Long id) {
+                return tryFindTaggedById(id).map(TaggedGame::eTag).orElse(null);
+        }
+        
+        public boolean isGameModified(Long id, String eTag) {
+                String current = getGameETag(id);
+                return current == null || !current.equals(eTag);
+        }
+        
+        /**
+         * List versions live in this instance's memory, so the tag carries a per-instance prefix and
+         * never matches a tag handed out before a restart or by another instance.
+         */
+        public String getListETag(Long listId) {
+                return instanceTag + "-" + listVersions.getOrDefault(listId, 0L) + "-" + gameDataVersion.get();
+        }
+        
+        public boolean isListModified(Long listId, String eTag) {
+                return !getListETag(listId).equals(eTag);
+        }
+        
+        public CacheStats getListSnapshotStats() {
+                return listSnapshots.stats();
+        }
+        
+        @Transactional(readOnly = true)
+        public ListPage findByList(Long listId, Integer afterPosition, int limit) {
+                checkPageSize(limit);
+                List<GameMinProjection> result = gameRepository.searchByListAfterPosition(listId,
+                                afterPosition == null ? Integer.MIN_VALUE : afterPosition, limit);
+                Integer nextAfterPosition = result.size() < limit ? null : result.get(result.size() - 1).getPosition();
+                return new ListPage(result.stream().map(x -> new GameMinDTO(x)).toList(), nextAfterPosition);
+        }
+        
         @Transactional
         public Game createGameInAList(Long listId , Game game) {
-                List<GameMinProjection> gameList = gameRepository.searchByList(listId);
-                Integer gameListSize = gameList.size() + 1;
+                gameListRepository.lockById(listId);
+                Integer position = firstFreePosition(listId, 1);
                 
                 Game gameSaved = gameRepository.save(game);
+                rememberGameId(gameSaved.getId());
                 
-                gameListRepository.insertBelonging(listId, gameSaved.getId(), gameListSize);
+                gameListRepository.insertBelonging(listId, gameSaved.getId(), position);
+                touchList(listId);
+                scheduleCatalogSnapshotRebuild();
                 
                 return gameSaved;
                 
         }
         
         @Transactional
+        public List<Game> createGamesInAList(Long listId, List<Game> games) {
+                gameListRepository.lockById(listId);
+                int firstPosition = firstFreePosition(listId, games.size());
+                int step = isSparse(listId) ? SPARSE_POSITION_GAP : 1;
+                
+                List<Game> gamesSaved = gameRepository.saveAll(games);
+                gameRepository.flush();
+                gamesSaved.forEach(x -> rememberGameId(x.getId()));
+                
+                List<Object[]> belongings = new ArrayList<>(gamesSaved.size());
+                for (int i = 0; i < gamesSaved.size(); i++) {
+                        belongings.add(new Object[] { listId, gamesSaved.get(i).getId(), firstPosition + i * step });
+                }
+                jdbcTemplate.batchUpdate(INSERT_BELONGING_SQL, belongings);
+                touchList(listId);
+                scheduleCatalogSnapshotRebuild();
+                
+                return gamesSaved;
+        }
+        
         public void updateGame(Long id, Game gameUpdates) {
-            Game existingGame = gameRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Game not found with id: " + id));
+                if (!tryUpdateGame(id, gameUpdates)) {
+                        throw new GameNotFoundException("Game not found with id: " + id);
+                }
+        }
+        
+        public boolean tryUpdateGame(Long id, Game gameUpdates) {
+                return withOptimisticRetry(() -> updateGameAttempt(id, gameUpdates));
+        }
+        
+        private boolean updateGameAttempt(Long id, Game gameUpdates) {
+            Optional<Game> existingGame = gameRepository.findById(id);
+            if (existingGame.isEmpty()) {
+                return false;
+            }
 
-            BeanUtils.copyProperties(gameUpdates, existingGame, EntityUtils.getNullPropertyNames(gameUpdates));
+            GAME_COPIER.copyNonNullProperties(gameUpdates, existingGame.get());
 
-            gameRepository.save(existingGame);
+            gameRepository.saveAndFlush(existingGame.get());
+            evictGame(id);
+            touchGameData();
+            scheduleCatalogSnapshotRebuild();
+            return true;
         }
         
+        /**
+         * Writes the non-null properties of {@code gameUpdates} in a single bulk UPDATE without reading
+         * the game first. The statement is built on entity attributes, so Hibernate maps them and the
+         * version attribute to their columns.
+         */
         @Transactional
+        public void patchGame(Long id, Game gameUpdates) {
+                CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+                CriteriaUpdate<Game> update = builder.createCriteriaUpdate(Game.class);
+                Root<Game> game = update.from(Game.class);
+                AtomicBoolean changed = new AtomicBoolean();
+                GAME_COPIER.forEachNonNullProperty(gameUpdates, (property, value) -> {
+                        update.set(property, value);
+                        changed.set(true);
+                });
+                
+                boolean found;
+                if (!changed.get()) {
+                        found = gameRepository.existsById(id);
+                } else {
+                        update.set(game.<Long>get("version"), builder.sum(game.<Long>get("version"), 1L));
+                        update.where(builder.equal(game.get("id"), id));
+                        found = entityManager.createQuery(update).executeUpdate() > 0;
+                }
+                if (!found) {
+                        throw new GameNotFoundException("Game not found with id: " + id);
+                }
+                evictGame(id);
+                touchGameData();
+                scheduleCatalogSnapshotRebuild();
+        }
+        
         public void deleteGame(Long id) {
-                Long listId = gameRepository.searchListIdByGameId(id);
-            if (listId == null) {
-                throw new RuntimeException("Game not found in any list.");
-            }
-
-            List<GameMinProjection> gamesInList = gameRepository.searchByList(listId);
-
-            int removedPosition = -1;
-            for (int i = 0; i < gamesInList.size(); i++) {
-                if (gamesInList.get(i).getId().equals(id)) {
-                    removedPosition = i;
-                    break;
+                DeleteOutcome outcome = withOptimisticRetry(() -> deleteGameAttempt(id));
+                if (outcome != DeleteOutcome.DELETED) {
+                        throw new GameNotFoundException(outcome.message);
                 }
+        }
+        
+        public boolean tryDeleteGame(Long id) {
+                return withOptimisticRetry(() -> deleteGameAttempt(id)) == DeleteOutcome.DELETED;
+        }
+        
+        private DeleteOutcome deleteGameAttempt(Long id) {
+                List<Belonging> belongings = searchBelongingsByGameIds(List.of(id));
+            if (belongings.isEmpty()) {
+                return DeleteOutcome.NOT_IN_ANY_LIST;
             }
+            Long listId = belongings.get(0).listId();
+            int removedPosition = belongings.get(0).position();
+            // read before the lock; the guarded delete below rejects it if a move committed in between
+            gameListRepository.lockById(listId);
 
-            if (removedPosition == -1) {
-                throw new RuntimeException("Game not found in the list.");
+            if (gameRepository.removeGameFromListAtPosition(id, listId, removedPosition) == 0) {
+                throw new OptimisticLockingFailureException("Game " + id + " moved in list " + listId + " while being removed.");
             }
 
-            gameRepository.removeGameFromList(id, listId);
+            if (!isSparse(listId)) {
+                gameRepository.updateGamePositions(listId, removedPosition);
+            }
+            evictGame(id);
+            touchList(listId);
+            return DeleteOutcome.DELETED;
+        }
+        
+        @Transactional
+        public int deleteGames(Collection<Long> ids) {
+                Map<Long, Set<Long>> removedByList = new TreeMap<>();
+                for (Belonging belonging : searchBelongingsByGameIds(ids)) {
+                        removedByList.computeIfAbsent(belonging.listId(), k -> new HashSet<>()).add(belonging.gameId());
+                }
+                
+                int rewrittenRows = 0;
+                for (Map.Entry<Long, Set<Long>> entry : removedByList.entrySet()) {
+                        Long listId = entry.getKey();
+                        Set<Long> removedIds = entry.getValue();
+                        gameListRepository.lockById(listId);
+                        boolean sparse = isSparse(listId);
+                        
+                        List<Object[]> deletes = new ArrayList<>(removedIds.size());
+                        List<Object[]> updates = new ArrayList<>();
+                        int shift = 0;
+                        for (Belonging belonging : jdbcTemplate.query(SELECT_BELONGINGS_BY_LIST_SQL, Belonging.MAPPER, listId)) {
+                                if (removedIds.contains(belonging.gameId())) {
+                                        deletes.add(new Object[] { listId, belonging.gameId() });
+                                        shift++;
+                                } else if (shift > 0 && !sparse) {
+                                        updates.add(new Object[] { belonging.position() - shift, listId, belonging.gameId() });
+                                }
+                        }
+                        
+                        jdbcTemplate.batchUpdate(DELETE_BELONGING_SQL, deletes);
+                        jdbcTemplate.batchUpdate(UPDATE_BELONGING_POSITION_SQL, updates);
+                        rewrittenRows += updates.size();
+                        touchList(listId);
+                }
+                
+                for (Long id : ids) {
+                        evictGame(id);
+                }
+                return rewrittenRows;
+        }
+        
+        /**
+         * Both arguments are 0-based indices into the list as {@link #findByList(Long)} returns it,
+         * whatever base the stored positions use.
+         */
+        @Transactional
+        public void moveGame(Long listId, int sourceIndex, int destinationIndex) {
+                gameListRepository.lockById(listId);
+                int size = gameListRepository.countBelongingsByList(listId);
+                if (sourceIndex < 0 || sourceIndex >= size || destinationIndex < 0 || destinationIndex >= size) {
+                        throw new IllegalArgumentException("Cannot move from index " + sourceIndex + " to " + destinationIndex
+                                        + " in list " + listId + " of " + size + " games");
+                }
+                if (sourceIndex == destinationIndex) {
+                        return;
+                }
+                
+                touchList(listId);
+                if (isSparse(listId)) {
+                        moveSparse(listId, sourceIndex, destinationIndex);
+                        return;
+                }
+                
+                // positions may start at 0 or 1 or have a hole, so the rows at both indices are read
+                int sourcePosition = belongingsAt(listId, sourceIndex, 1).get(0).position();
+                int destinationPosition = belongingsAt(listId, destinationIndex, 1).get(0).position();
+                int movedRows = gameListRepository.moveBelonging(listId, sourcePosition, destinationPosition,
+                                Math.min(sourcePosition, destinationPosition), Math.max(sourcePosition, destinationPosition));
+                if (movedRows == 0) {
+                        throw new RuntimeException("No game at position " + sourcePosition + " in list " + listId);
+                }
+        }
+        
+        @Transactional
+        public int reorderList(Long listId, List<Long> orderedGameIds) {
+                gameListRepository.lockById(listId);
+                List<Belonging> current = jdbcTemplate.query(SELECT_BELONGINGS_BY_LIST_SQL, Belonging.MAPPER, listId);
+                
+                Map<Long, Integer> currentIndex = new HashMap<>();
+                for (int i = 0; i < current.size(); i++) {
+                        currentIndex.put(current.get(i).gameId(), i);
+                }
+                int[] previousIndex = new int[orderedGameIds.size()];
+                for (int i = 0; i < previousIndex.length; i++) {
+                        Integer index = currentIndex.remove(orderedGameIds.get(i));
+                        if (index == null) {
+                                throw new IllegalArgumentException("Game " + orderedGameIds.get(i) + " is not in list " + listId + " or is repeated");
+                        }
+                        previousIndex[i] = index;
+                }
+                if (!currentIndex.isEmpty()) {
+                        throw new IllegalArgumentException("New order for list " + listId + " is missing games " + currentIndex.keySet());
+                }
+                
+                int[] positions = isSparse(listId) ? sparseReorderPositions(current, previousIndex) : null;
+                List<Object[]> updates = new ArrayList<>();
+                for (int i = 0; i < previousIndex.length; i++) {
+                        // dense lists reuse the existing slots in order, so only games whose slot changed are written
+                        int position = positions != null ? positions[i] : current.get(i).position();
+                        Belonging belonging = current.get(previousIndex[i]);
+                        if (belonging.position() != position) {
+                                updates.add(new Object[] { position, listId, belonging.gameId() });
+                        }
+                }
+                jdbcTemplate.batchUpdate(UPDATE_BELONGING_POSITION_SQL, updates);
+                touchList(listId);
+                return updates.size();
+        }
+        
+        /**
+         * Keeps the longest run of games that are already in increasing order where they are and
+         * fits every other game into the gaps between them. Falls back to a full respace when a
+         * gap is too narrow or a run would spill past either end of the int range.
+         */
+        static int[] sparseReorderPositions(List<Belonging> current, int[] previousIndex) {
+                int n = previousIndex.length;
+                int[] positions = new int[n];
+                boolean[] kept = longestIncreasingSubsequence(previousIndex);
+                
+                int i = 0;
+                while (i < n) {
+                        if (kept[i]) {
+                                positions[i] = current.get(previousIndex[i]).position();
+                                i++;
+                                continue;
+                        }
+                        int runEnd = i;
+                        while (runEnd < n && !kept[runEnd]) {
+                                runEnd++;
+                        }
+                        int runLength = runEnd - i;
+                        Integer lower = i > 0 ? positions[i - 1] : null;
+                        Integer upper = runEnd < n ? current.get(previousIndex[runEnd]).position() : null;
+                        
+                        // first position of the run and the spacing from there, in long so the edges can be checked
+                        long first;
+                        long step = SPARSE_POSITION_GAP;
+                        if (lower == null && upper == null) {
+                                first = 0;
+                        } else if (lower == null) {
+                                first = (long) upper - (long) runLength * SPARSE_POSITION_GAP;
+                        } else if (upper == null) {
+                                first = (long) lower + SPARSE_POSITION_GAP;
+                        } else {
+                                step = ((long) upper - lower) / (runLength + 1);
+                                first = lower + step;
+                        }
+                        long last = first + (runLength - 1) * step;
+                        if (step < 1 || first < Integer.MIN_VALUE || last > Integer.MAX_VALUE) {
+                                for (int j = 0; j < n; j++) {
+                                        positions[j] = j * SPARSE_POSITION_GAP;
+                                }
+                                return positions;
+                        }
+                        for (int j = 0; j < runLength; j++) {
+                                positions[i + j] = (int) (first + j * step);
+                        }
+                        i = runEnd;
+                }
+                return positions;
+        }
+        
+        private static boolean[] longestIncreasingSubsequence(int[] values) {
+                int[] tails = new int[values.length];
+                int[] predecessor = new int[values.length];
+                int length = 0;
+                for (int i = 0; i < values.length; i++) {
+                        int low = 0;
+                        int high = length;
+                        while (low < high) {
+                                int mid = (low + high) >>> 1;
+                                if (values[tails[mid]] < values[i]) {
+                                        low = mid + 1;
+                                } else {
+                                        high = mid;
+                                }
+                        }
+                        predecessor[i] = low > 0 ? tails[low - 1] : -1;
+                        tails[low] = i;
+                        if (low == length) {
+                                length++;
+                        }
+                }
+                
+                boolean[] kept = new boolean[values.length];
+                for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = predecessor[i]) {
+                        kept[i] = true;
+                }
+                return kept;
+        }
+        
+        private void moveSparse(Long listId, int sourceIndex, int destinationIndex) {
+                List<Belonging> sourceRows = belongingsAt(listId, sourceIndex, 1);
+                if (sourceRows.isEmpty()) {
+                        throw new RuntimeException("No game at position " + sourceIndex + " in list " + listId);
+                }
+                
+                // neighbours of the destination slot once the moved row is taken out of the list
+                int lowerIndex = destinationIndex < sourceIndex ? destinationIndex - 1 : destinationIndex;
+                List<Belonging> neighbours = belongingsAt(listId, Math.max(lowerIndex, 0), lowerIndex < 0 ? 1 : 2);
+                Belonging lower = lowerIndex < 0 || neighbours.isEmpty() ? null : neighbours.get(0);
+                Belonging upper = lowerIndex < 0 ? (neighbours.isEmpty() ? null : neighbours.get(0))
+                                : (neighbours.size() > 1 ? neighbours.get(1) : null);
+                
+                // moveGame's bounds check leaves at least one other game, so one neighbour always exists
+                // computed in long: the neighbours can be up to the whole int range apart
+                long position;
+                if (lower == null) {
+                        position = (long) upper.position() - SPARSE_POSITION_GAP;
+                } else if (upper == null) {
+                        position = (long) lower.position() + SPARSE_POSITION_GAP;
+                } else {
+                        long gap = (long) upper.position() - lower.position();
+                        if (gap < 2) {
+                                rebalance(listId);
+                                moveSparse(listId, sourceIndex, destinationIndex);
+                                return;
+                        }
+                        position = lower.position() + gap / 2;
+                        if (gap <= 4) {
+                                scheduleRebalance(listId);
+                        }
+                }
+                if (position < Integer.MIN_VALUE || position > Integer.MAX_VALUE) {
+                        rebalance(listId);
+                        moveSparse(listId, sourceIndex, destinationIndex);
+                        return;
+                }
+                
+                jdbcTemplate.update(UPDATE_BELONGING_POSITION_SQL, (int) position, listId, sourceRows.get(0).gameId());
+        }
+        
+        private List<Belonging> belongingsAt(Long listId, int index, int count) {
+                return jdbcTemplate.query(SELECT_BELONGINGS_BY_LIST_SQL + " LIMIT ? OFFSET ?", Belonging.MAPPER,
+                                listId, count, index);
+        }
+        
+        /**
+         * The mode is read from the list row rather than the property, so rows are always handled
+         * with the layout they were written in; {@link #applyPositionModes()} moves lists between modes.
+         */
+        private boolean isSparse(Long listId) {
+                List<Boolean> mode = jdbcTemplate.queryForList(SELECT_SPARSE_POSITIONS_SQL, Boolean.class, listId);
+                return !mode.isEmpty() && Boolean.TRUE.equals(mode.get(0));
+        }
+        
+        /**
+         * Brings every list's stored position mode in line with dslist.lists.sparse-positions: lists
+         * added to the property are respaced 1024 apart, lists removed from it are renumbered densely
+         * from 1. Each list is converted in its own transaction under the list lock.
+         */
+        @EventListener(ApplicationReadyEvent.class)
+        public void applyPositionModes() {
+                Set<Long> listIds = new TreeSet<>(sparsePositionLists);
+                listIds.addAll(jdbcTemplate.queryForList("SELECT id FROM tb_game_list WHERE sparse_positions = TRUE", Long.class));
+                for (Long listId : listIds) {
+                        boolean sparse = sparsePositionLists.contains(listId);
+                        transactionTemplate.executeWithoutResult(status -> {
+                                gameListRepository.lockById(listId);
+                                if (isSparse(listId) == sparse) {
+                                        return;
+                                }
+                                if (sparse) {
+                                        rebalance(listId);
+                                } else {
+                                        respace(listId, 1, 1);
+                                }
+                                jdbcTemplate.update("UPDATE tb_game_list SET sparse_positions = ? WHERE id = ?", sparse, listId);
+                                touchList(listId);
+                        });
+                }
+        }
+        
+        /**
+         * First of {@code count} free positions at the end of the list. A sparse list whose appended
+         * positions would run past Integer.MAX_VALUE is rebalanced first, which restarts it at 0.
+         */
+        private int firstFreePosition(Long listId, int count) {
+                if (!isSparse(listId)) {
+                        return gameListRepository.countBelongingsByList(listId) + 1;
+                }
+                Integer maxPosition = gameListRepository.maxPositionByList(listId);
+                if (maxPosition == null) {
+                        return 0;
+                }
+                long lastPosition = (long) maxPosition + (long) count * SPARSE_POSITION_GAP;
+                if (lastPosition <= Integer.MAX_VALUE) {
+                        return maxPosition + SPARSE_POSITION_GAP;
+                }
+                rebalance(listId);
+                return Math.multiplyExact(gameListRepository.countBelongingsByList(listId), SPARSE_POSITION_GAP);
+        }
+        
+        private void rebalance(Long listId) {
+                respace(listId, 0, SPARSE_POSITION_GAP);
+        }
+        
+        private void respace(Long listId, int firstPosition, int step) {
+                List<Belonging> belongings = jdbcTemplate.query(SELECT_BELONGINGS_BY_LIST_SQL, Belonging.MAPPER, listId);
+                List<Object[]> updates = new ArrayList<>();
+                for (int i = 0; i < belongings.size(); i++) {
+                        Belonging belonging = belongings.get(i);
+                        int position = firstPosition + i * step;
+                        if (belonging.position() != position) {
+                                updates.add(new Object[] { position, listId, belonging.gameId() });
+                        }
+                }
+                jdbcTemplate.batchUpdate(UPDATE_BELONGING_POSITION_SQL, updates);
+        }
+        
+        private void scheduleRebalance(Long listId) {
+                if (!pendingRebalances.add(listId)) {
+                        return;
+                }
+                Runnable task = () -> {
+                        try {
+                                transactionTemplate.executeWithoutResult(status -> {
+                                        gameListRepository.lockById(listId);
+                                        rebalance(listId);
+                                });
+                        } finally {
+                                pendingRebalances.remove(listId);
+                        }
+                };
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                                @Override
+                                public void afterCompletion(int status) {
+                                        rebalanceExecutor.execute(task);
+                                }
+                        });
+                } else {
+                        rebalanceExecutor.execute(task);
+                }
+        }
+        
+        /**
+         * Reloads the caches dumped by the previous instance. Game entries are only kept when their
+         * version still matches the database; list snapshots are rebuilt from the database. A file in
+         * another format is ignored. The file's CRC32 trailer is checked before anything is parsed,
+         * and every length and count is checked against the file size, so a corrupt file fails with an
+         * IOException rather than a huge allocation. It is then logged and deleted, so a warm cache
+         * never keeps the application from starting.
+         */
+        @EventListener(ApplicationReadyEvent.class)
+        public void warmUpCaches() {
+                Path file = warmStartPath.isEmpty() ? null : Path.of(warmStartPath);
+                if (file == null || !Files.exists(file)) {
+                        return;
+                }
+                
+                try {
+                        loadWarmStartFile(file);
+                } catch (Exception e) {
+                        log.warn("Could not load the warm-start file {}, starting with cold caches", file, e);
+                        try {
+                                Files.deleteIfExists(file);
+                        } catch (IOException deleteFailure) {
+                                log.warn("Could not delete the warm-start file {}", file, deleteFailure);
+                        }
+                }
+        }
+        
+        private void loadWarmStartFile(Path file) throws IOException {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                        if (in.readInt() != WARM_START_MAGIC || in.readInt() != WARM_START_FORMAT_VERSION) {
+                                log.info("Ignoring the warm-start file {}, it was written in another format", file);
+                                return;
+                        }
+                }
+                long size = Files.size(file);
+                verifyWarmStartChecksum(file, size);
+                
+                Map<Long, CompactCachedGame> games = new HashMap<>();
+                List<Long> listIds = new ArrayList<>();
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                        in.readInt();
+                        in.readInt();
+                        for (int i = readCount(in, size, 1); i > 0; i--) {
+                                CompactCachedGame game = CompactCachedGame.readFrom(in, size);
+                                games.put(game.id(), game);
+                        }
+                        for (int i = readCount(in, size, Long.BYTES); i > 0; i--) {
+                                listIds.add(in.readLong());
+                        }
+                }
+                
+                Map<Long, Long> stamps = new HashMap<>();
+                games.keySet().forEach(id -> stamps.put(id, gameCache.stamp(id)));
+                chunks(games.keySet()).parallelStream().forEach(chunk -> {
+                        String sql = "SELECT id, version FROM tb_game WHERE id IN ("
+                                        + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                        jdbcTemplate.query(sql, rs -> {
+                                CompactCachedGame game = games.get(rs.getLong("id"));
+                                if (game.version() != null && game.version() == rs.getLong("version")) {
+                                        CachedGame cached = compressCachedTexts ? game : PlainCachedGame.of(game.toDto(), game.version());
+                                        gameCache.putIfUnchanged(game.id(), cached, stamps.get(game.id()));
+                                }
+                        }, chunk.toArray());
+                });
+                listIds.parallelStream().forEach(this::findByList);
+        }
+        
+        private static int readCount(DataInputStream in, long fileSize, int minBytesEach) throws IOException {
+                int count = in.readInt();
+                if (count < 0 || count > fileSize / minBytesEach) {
+                        throw new IOException("Corrupt entry count " + count + " in a warm-start file of " + fileSize + " bytes");
+                }
+                return count;
+        }
+        
+        /**
+         * The last eight bytes of the file hold the CRC32 of everything before them.
+         */
+        private static void verifyWarmStartChecksum(Path file, long size) throws IOException {
+                if (size < Long.BYTES) {
+                        throw new EOFException("Warm-start file " + file + " has no checksum");
+                }
+                CRC32 crc = new CRC32();
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                        byte[] buffer = new byte[8192];
+                        for (long left = size - Long.BYTES; left > 0; ) {
+                                int read = in.read(buffer, 0, (int) Math.min(buffer.length, left));
+                                if (read < 0) {
+                                        throw new EOFException("Warm-start file " + file + " shrank while being read");
+                                }
+                                crc.update(buffer, 0, read);
+                                left -= read;
+                        }
+                        if (in.readLong() != crc.getValue()) {
+                                throw new IOException("Checksum mismatch in the warm-start file " + file);
+                        }
+                }
+        }
+        
+        private void dumpCaches() throws IOException {
+                Path target = Path.of(warmStartPath).toAbsolutePath();
+                Path temp = Files.createTempFile(target.getParent(), "warm-start", ".tmp");
+                try {
+                        CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)), new CRC32());
+                        try (DataOutputStream out = new DataOutputStream(checked)) {
+                                out.writeInt(WARM_START_MAGIC);
+                                out.writeInt(WARM_START_FORMAT_VERSION);
+                                List<CachedGame> games = gameCache.values();
+                                out.writeInt(games.size());
+                                for (CachedGame game : games) {
+                                        game.compact().writeTo(out);
+                                }
+                                List<Long> listIds = listSnapshots.keys();
+                                out.writeInt(listIds.size());
+                                for (Long listId : listIds) {
+                                        out.writeLong(listId);
+                                }
+                                out.writeLong(checked.getChecksum().getValue());
+                        }
+                        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                        Files.deleteIfExists(temp);
+                }
+        }
+        
+        @PreDestroy
+        void shutdown() {
+                try {
+                        if (!warmStartPath.isEmpty()) {
+                                dumpCaches();
+                        }
+                } catch (IOException e) {
+                        throw new UncheckedIOException("Could not write the warm-start file " + warmStartPath, e);
+                } finally {
+                        rebalanceExecutor.shutdown();
+                        batchScheduler.shutdown();
+                        snapshotExecutor.shutdown();
+                        idFilterScheduler.shutdown();
+                }
+        }
+        
+        private List<Belonging> searchBelongingsByGameIds(Collection<Long> ids) {
+                List<Belonging> result = new ArrayList<>();
+                for (List<Long> chunk : chunks(ids)) {
+                        String sql = "SELECT list_id, game_id, position FROM tb_belonging WHERE game_id IN ("
+                                        + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                        result.addAll(jdbcTemplate.query(sql, Belonging.MAPPER, chunk.toArray()));
+                }
+                return result;
+        }
+        
+        private static List<List<Long>> chunks(Collection<Long> ids) {
+                List<Long> idList = new ArrayList<>(ids);
+                List<List<Long>> chunks = new ArrayList<>();
+                for (int from = 0; from < idList.size(); from += IN_CLAUSE_BATCH_SIZE) {
+                        chunks.add(idList.subList(from, Math.min(from + IN_CLAUSE_BATCH_SIZE, idList.size())));
+                }
+                return chunks;
+        }
+        
+        public OptimisticLockStats getOptimisticLockStats() {
+                return new OptimisticLockStats(optimisticConflicts.sum(), optimisticRetries.sum());
+        }
+        
+        /**
+         * Runs each attempt in its own transaction and retries optimistic-lock conflicts with
+         * exponential backoff and full jitter. When the caller already holds a transaction the
+         * conflict is left to the caller, since that transaction can no longer be committed.
+         */
+        private <T> T withOptimisticRetry(Supplier<T> attempt) {
+                int maxAttempts = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : optimisticMaxAttempts;
+                for (int attemptNumber = 1; ; attemptNumber++) {
+                        try {
+                                return transactionTemplate.execute(status -> attempt.get());
+                        } catch (OptimisticLockingFailureException e) {
+                                optimisticConflicts.increment();
+                                if (attemptNumber >= maxAttempts) {
+                                        throw e;
+                                }
+                                optimisticRetries.increment();
+                                try {
+                                        long bound = optimisticBackoffMillis << Math.min(attemptNumber - 1, 10);
+                                        Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+                                } catch (InterruptedException interrupted) {
+                                        Thread.currentThread().interrupt();
+                                        throw e;
+                                }
+                        }
+                }
+        }
+        
+        private void evictGame(Long id) {
+                gameCache.invalidate(id);
+                afterCompletion(() -> gameCache.invalidate(id));
+        }
+        
+        /**
+         * Bumps the list's version now and again once the transaction completes, so a snapshot
+         * loaded before the commit, or from rows that were rolled back, is not served afterwards.
+         */
+        private void touchList(Long listId) {
+                listVersions.put(listId, listVersionClock.incrementAndGet());
+                afterCompletion(() -> listVersions.put(listId, listVersionClock.incrementAndGet()));
+        }
+        
+        private void touchGameData() {
+                gameDataVersion.incrementAndGet();
+                afterCompletion(gameDataVersion::incrementAndGet);
+        }
+        
+        /**
+         * Runs the action once the surrounding transaction has finished, whether it committed or
+         * rolled back, so a value loaded from its uncommitted rows is dropped either way.
+         */
+        private static void afterCompletion(Runnable action) {
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                                @Override
+                                public void afterCompletion(int status) {
+                                        action.run();
+                                }
+                        });
+                }
+        }
 
-            gameRepository.updateGamePositions(listId, removedPosition);
+        
+        record Belonging(long listId, long gameId, int position) {
+                
+                static final RowMapper<Belonging> MAPPER = (rs, rowNum) ->
+                                new Belonging(rs.getLong("list_id"), rs.getLong("game_id"), rs.getInt("position"));
+        }
+        
+        /**
+         * Not-found signal for the throwing lookups. It is expected under normal traffic, so it skips
+         * the stack trace capture; it stays a {@link NoSuchElementException} as {@code Optional.get()} threw before.
+         */
+        public static class GameNotFoundException extends NoSuchElementException {
+                
+                private static final long serialVersionUID = 1L;
+                
+                public GameNotFoundException(String message) {
+                        super(message);
+                }
+                
+                @Override
+                public synchronized Throwable fillInStackTrace() {
+                        return this;
+                }
+        }
+        
+        private enum DeleteOutcome {
+                
+                DELETED(null),
+                NOT_IN_ANY_LIST("Game not found in any list.");
+                
+                private final String message;
+                
+                DeleteOutcome(String message) {
+                        this.message = message;
+                }
+        }
+        
+        interface CachedGame {
+                
+                Long version();
+                
+                GameDTO toDto();
+                
+                CompactCachedGame compact();
+        }
+        
+        /**
+         * Cache entry holding the detail fields themselves. Every hit gets its own {@link GameDTO},
+         * so a caller that modifies the one it received cannot change what others are served.
+         */
+        record PlainCachedGame(Long id, Long version, String title, Integer year, String genre, String platforms,
+                        Double score, String imgUrl, String shortDescription, String longDescription) implements CachedGame {
+                
+                static final RowMapper<PlainCachedGame> MAPPER = (rs, rowNum) -> new PlainCachedGame(rs.getLong("id"),
+                                rs.getObject("version", Long.class), rs.getString("title"), rs.getObject("game_year", Integer.class),
+                                rs.getString("genre"), rs.getString("platforms"), rs.getObject("score", Double.class),
+                                rs.getString("img_url"), rs.getString("short_description"), rs.getString("long_description"));
+                
+                static PlainCachedGame of(GameDTO dto, Long version) {
+                        return new PlainCachedGame(dto.getId(), version, dto.getTitle(), dto.getYear(),
+                                        dto.getGenre(), dto.getPlatforms(), dto.getScore(), dto.getImgUrl(),
+                                        dto.getShortDescription(), dto.getLongDescription());
+                }
+                
+                @Override
+                public GameDTO toDto() {
+                        return gameDto(id, title, year, genre, platforms, score, imgUrl, shortDescription, longDescription);
+                }
+                
+                @Override
+                public CompactCachedGame compact() {
+                        return CompactCachedGame.of(this);
+                }
+        }
+        
+        private static GameDTO gameDto(Long id, String title, Integer year, String genre, String platforms, Double score,
+                        String imgUrl, String shortDescription, String longDescription) {
+                GameDTO dto = new GameDTO();
+                dto.setId(id);
+                dto.setTitle(title);
+                dto.setYear(year);
+                dto.setGenre(genre);
+                dto.setPlatforms(platforms);
+                dto.setScore(score);
+                dto.setImgUrl(imgUrl);
+                dto.setShortDescription(shortDescription);
+                dto.setLongDescription(longDescription);
+                return dto;
+        }
+        
+        /**
+         * Cache entry that keeps the two description texts as UTF-8 bytes, deflated when that is
+         * smaller, and rebuilds the {@link GameDTO} on every hit.
+         */
+        record CompactCachedGame(Long id, Long version, String title, Integer year, String genre, String platforms,
+                        Double score, String imgUrl, byte[] shortDescription, byte[] longDescription) implements CachedGame {
+                
+                static final byte RAW = 0;
+                static final byte DEFLATED = 1;
+                
+                // one per thread and reset after each use, so a hit does not allocate native zlib state
+                private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+                
+                static CompactCachedGame of(PlainCachedGame game) {
+                        return new CompactCachedGame(game.id(), game.version(), game.title(), game.year(),
+                                        game.genre(), game.platforms(), game.score(), game.imgUrl(),
+                                        encode(game.shortDescription()), encode(game.longDescription()));
+                }
+                
+                /**
+                 * Rejects any field length above {@code maxLength} with an IOException, so a corrupt length
+                 * cannot make it allocate more than the input could hold.
+                 */
+                static CompactCachedGame readFrom(DataInputStream in, long maxLength) throws IOException {
+                        return new CompactCachedGame(in.readLong(), in.readBoolean() ? in.readLong() : null,
+                                        readString(in, maxLength), in.readBoolean() ? in.readInt() : null,
+                                        readString(in, maxLength), readString(in, maxLength),
+                                        in.readBoolean() ? in.readDouble() : null, readString(in, maxLength),
+                                        readBytes(in, maxLength), readBytes(in, maxLength));
+                }
+                
+                @Override
+                public CompactCachedGame compact() {
+                        return this;
+                }
+                
+                void writeTo(DataOutputStream out) throws IOException {
+                        out.writeLong(id);
+                        out.writeBoolean(version != null);
+                        if (version != null) {
+                                out.writeLong(version);
+                        }
+                        writeString(out, title);
+                        out.writeBoolean(year != null);
+                        if (year != null) {
+                                out.writeInt(year);
+                        }
+                        writeString(out, genre);
+                        writeString(out, platforms);
+                        out.writeBoolean(score != null);
+                        if (score != null) {
+                                out.writeDouble(score);
+                        }
+                        writeString(out, imgUrl);
+                        writeBytes(out, shortDescription);
+                        writeBytes(out, longDescription);
+                }
+                
+                private static void writeString(DataOutputStream out, String value) throws IOException {
+                        writeBytes(out, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+                }
+                
+                private static String readString(DataInputStream in, long maxLength) throws IOException {
+                        byte[] utf8 = readBytes(in, maxLength);
+                        return utf8 == null ? null : new String(utf8, StandardCharsets.UTF_8);
+                }
+                
+                private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+                        out.writeInt(value == null ? -1 : value.length);
+                        if (value != null) {
+                                out.write(value);
+                        }
+                }
+                
+                private static byte[] readBytes(DataInputStream in, long maxLength) throws IOException {
+                        int length = in.readInt();
+                        if (length == -1) {
+                                return null;
+                        }
+                        if (length < -1 || length > maxLength) {
+                                throw new IOException("Corrupt field length " + length + ", at most " + maxLength + " bytes can follow");
+                        }
+                        byte[] value = new byte[length];
+                        in.readFully(value);
+                        return value;
+                }
+                
+                @Override
+                public GameDTO toDto() {
+                        return gameDto(id, title, year, genre, platforms, score, imgUrl, decode(shortDescription),
+                                        decode(longDescription));
+                }
+                
+                private static byte[] encode(String text) {
+                        if (text == null) {
+                                return null;
+                        }
+                        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+                        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                        try {
+                                deflater.setInput(utf8);
+                                deflater.finish();
+                                byte[] buffer = new byte[utf8.length];
+                                int length = deflater.deflate(buffer);
+                                if (!deflater.finished() || length + 4 >= utf8.length) {
+                                        return ByteBuffer.allocate(1 + utf8.length).put(RAW).put(utf8).array();
+                                }
+                                return ByteBuffer.allocate(5 + length).put(DEFLATED).putInt(utf8.length).put(buffer, 0, length).array();
+                        } finally {
+                                deflater.end();
+                        }
+                }
+                
+                private static String decode(byte[] encoded) {
+                        if (encoded == null) {
+                                return null;
+                        }
+                        if (encoded[0] == RAW) {
+                                return new String(encoded, 1, encoded.length - 1, StandardCharsets.UTF_8);
+                        }
+                        Inflater inflater = INFLATER.get();
+                        try {
+                                inflater.setInput(encoded, 5, encoded.length - 5);
+                                byte[] utf8 = new byte[ByteBuffer.wrap(encoded, 1, 4).getInt()];
+                                inflater.inflate(utf8);
+                                return new String(utf8, StandardCharsets.UTF_8);
+                        } catch (DataFormatException e) {
+                                throw new IllegalStateException("Corrupt cached game text", e);
+                        } finally {
+                                inflater.reset();
+                        }
+                }
+        }
+        
+        /**
+         * Read-only mapping of the all-games listing. Rows are stored back to back (id, year, then
+         * length-prefixed UTF-8 title, image url and short description), followed by an int offset
+         * per row and a footer with the index offset, the row count and a magic number.
+         */
+        static final class CatalogSnapshot {
+                
+                private static final int MAGIC = 0x44534C43;
+                private static final int NULL_YEAR = Integer.MIN_VALUE;
+                
+                private final MappedByteBuffer buffer;
+                private final int indexOffset;
+                private final int rowCount;
+                private final List<GameMinDTO> games = new Rows();
+                
+                private CatalogSnapshot(MappedByteBuffer buffer, int indexOffset, int rowCount) {
+                        this.buffer = buffer;
+                        this.indexOffset = indexOffset;
+                        this.rowCount = rowCount;
+                }
+                
+                static void write(Iterator<GameMinProjection> rows, Path file) throws IOException {
+                        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                                int[] offsets = new int[1024];
+                                int count = 0;
+                                while (rows.hasNext()) {
+                                        GameMinProjection row = rows.next();
+                                        if (count == offsets.length) {
+                                                offsets = Arrays.copyOf(offsets, count * 2);
+                                        }
+                                        offsets[count++] = out.size();
+                                        out.writeLong(row.getId());
+                                        out.writeInt(row.getGameYear() == null ? NULL_YEAR : row.getGameYear());
+                                        writeText(out, row.getTitle());
+                                        writeText(out, row.getImgUrl());
+                                        writeText(out, row.getShortDescription());
+                                        if (out.size() == Integer.MAX_VALUE) {
+                                                throw new IOException("Catalog snapshot does not fit in 2 GB");
+                                        }
+                                }
+                                
+                                int indexOffset = out.size();
+                                for (int i = 0; i < count; i++) {
+                                        out.writeInt(offsets[i]);
+                                }
+                                out.writeInt(indexOffset);
+                                out.writeInt(count);
+                                out.writeInt(MAGIC);
+                        }
+                }
+                
+                static CatalogSnapshot open(Path file) throws IOException {
+                        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                                int end = buffer.limit();
+                                if (end < 12 || buffer.getInt(end - 4) != MAGIC) {
+                                        throw new IOException("Not a catalog snapshot: " + file);
+                                }
+                                return new CatalogSnapshot(buffer, buffer.getInt(end - 12), buffer.getInt(end - 8));
+                        }
+                }
+                
+                List<GameMinDTO> games() {
+                        return games;
+                }
+                
+                private GameMinDTO row(int index) {
+                        int offset = buffer.getInt(indexOffset + index * 4);
+                        int year = buffer.getInt(offset + 8);
+                        int titleAt = offset + 12;
+                        int imgUrlAt = skipText(titleAt);
+                        int shortDescriptionAt = skipText(imgUrlAt);
+                        return new GameMinDTO(buffer.getLong(offset), readText(titleAt), year == NULL_YEAR ? null : year,
+                                        readText(imgUrlAt), readText(shortDescriptionAt));
+                }
+                
+                private int skipText(int at) {
+                        return at + 4 + Math.max(buffer.getInt(at), 0);
+                }
+                
+                private String readText(int at) {
+                        int length = buffer.getInt(at);
+                        if (length < 0) {
+                                return null;
+                        }
+                        byte[] utf8 = new byte[length];
+                        buffer.get(at + 4, utf8);
+                        return new String(utf8, StandardCharsets.UTF_8);
+                }
+                
+                private static void writeText(DataOutputStream out, String text) throws IOException {
+                        if (text == null) {
+                                out.writeInt(-1);
+                                return;
+                        }
+                        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+                        out.writeInt(utf8.length);
+                        out.write(utf8);
+                }
+                
+                private final class Rows extends AbstractList<GameMinDTO> implements RandomAccess {
+                        
+                        @Override
+                        public GameMinDTO get(int index) {
+                                if (index < 0 || index >= rowCount) {
+                                        throw new IndexOutOfBoundsException(index);
+                                }
+                                return row(index);
+                        }
+                        
+                        @Override
+                        public int size() {
+                                return rowCount;
+                        }
+                }
+        }
+        
+        private record ListSnapshot(long listVersion, long dataVersion, List<GameMinDTO> games) {
+        }
+        
+        /**
+         * Key of a collapsible read: the game or list id plus the cache stamp or list and game
+         * data versions the caller observed before loading.
+         */
+        private record ReadKey(Long id, long version, long dataVersion) {
+        }
+        
+        public record ListPage(List<GameMinDTO> games, Integer nextAfterPosition) {
+        }
+        
+        public record TaggedGame(GameDTO game, String eTag) {
+        }
+        
+        public record CacheStats(long hits, long misses, long evictions, int size) {
+        }
+        
+        public record TextDecodeStats(long decodes, long totalNanos) {
+        }
+        
+        public record OptimisticLockStats(long conflicts, long retries) {
+        }
+        
+        public record IdFilterStats(long checks, long rejections, long falsePositives) {
+                
+                public double falsePositiveRate() {
+                        long passed = checks - rejections;
+                        return passed == 0 ? 0.0 : (double) falsePositives / passed;
+                }
+        }
+        
+        /**
+         * Growable bitmap of the game ids found by a scan, plus those created here since. An id can
+         * commit after the scan has read past it, so only ids up to the highest one seen by the
+         * previous scan are ever rejected: those had a whole rebuild interval to commit before this
+         * scan started. Anything above that limit is reported as possibly present.
+         */
+        static final class GameIdBitmap {
+                
+                private volatile AtomicLongArray words = new AtomicLongArray(1024);
+                
+                private final long rejectLimit;
+                
+                private volatile long maxScannedId = -1;
+                
+                GameIdBitmap(long rejectLimit) {
+                        this.rejectLimit = rejectLimit;
+                }
+                
+                long maxScannedId() {
+                        return maxScannedId;
+                }
+                
+                synchronized void addScanned(long id) {
+                        add(id);
+                        maxScannedId = Math.max(maxScannedId, id);
+                }
+                
+                synchronized void add(long id) {
+                        if (id < 0 || id > Integer.MAX_VALUE) {
+                                return;
+                        }
+                        int word = (int) (id >>> 6);
+                        AtomicLongArray current = words;
+                        if (word >= current.length()) {
+                                AtomicLongArray grown = new AtomicLongArray(Math.max(word + 1, current.length() * 2));
+                                for (int i = 0; i < current.length(); i++) {
+                                        grown.set(i, current.get(i));
+                                }
+                                words = current = grown;
+                        }
+                        current.set(word, current.get(word) | (1L << id));
+                }
+                
+                boolean mightContain(long id) {
+                        if (id < 0 || id > Integer.MAX_VALUE || id > rejectLimit) {
+                                return true;
+                        }
+                        int word = (int) (id >>> 6);
+                        AtomicLongArray current = words;
+                        return word < current.length() && (current.get(word) & (1L << id)) != 0;
+                }
+        }
+        
+        /**
+         * Size-bounded cache with approximate LRU eviction. Reads take no shared lock; a hit only
+         * records the entry's access time, and the least recently used tenth is evicted in one pass
+         * once the cache is full. Invalidating a key bumps a stamp for that key's stripe, so a load
+         * that started before a write to it cannot put its stale value back, while loads of other
+         * keys are unaffected.
+         */
+        static final class LruCache<K, V> {
+                
+                private static final int STAMP_STRIPES = 4096;
+                
+                private final int maxSize;
+                private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+                private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+                private final Object evictionLock = new Object();
+                private final LongAdder hits = new LongAdder();
+                private final LongAdder misses = new LongAdder();
+                private final LongAdder evictions = new LongAdder();
+                
+                LruCache(int maxSize) {
+                        this.maxSize = maxSize;
+                }
+                
+                V get(K key) {
+                        return get(key, value -> true);
+                }
+                
+                /**
+                 * Returns the cached value only if {@code usable} accepts it. An entry that is present
+                 * but rejected counts as a miss, since the caller has to load the value anyway.
+                 */
+                V get(K key, Predicate<? super V> usable) {
+                        Entry<V> entry = entries.get(key);
+                        if (entry == null || !usable.test(entry.value)) {
+                                misses.increment();
+                                return null;
+                        }
+                        entry.lastAccess = System.nanoTime();
+                        hits.increment();
+                        return entry.value;
+                }
+                
+                /**
+                 * Looks the key up again without touching the hit and miss counts, for a caller whose
+                 * first lookup already counted as a miss.
+                 */
+                V recheck(K key) {
+                        Entry<V> entry = entries.get(key);
+                        if (entry == null) {
+                                return null;
+                        }
+                        entry.lastAccess = System.nanoTime();
+                        return entry.value;
+                }
+                
+                long stamp(K key) {
+                        return stamps.get(stripe(key));
+                }
+                
+                void putIfUnchanged(K key, V value, long expectedStamp) {
+                        int stripe = stripe(key);
+                        // checked inside compute, so an invalidate either sees the new entry or the put sees its stamp
+                        entries.compute(key, (k, current) -> stamps.get(stripe) == expectedStamp ? new Entry<>(value) : current);
+                        evictIfFull();
+                }
+                
+                void put(K key, V value) {
+                        entries.put(key, new Entry<>(value));
+                        evictIfFull();
+                }
+                
+                List<K> keys() {
+                        return new ArrayList<>(entries.keySet());
+                }
+                
+                List<V> values() {
+                        List<V> values = new ArrayList<>(entries.size());
+                        entries.values().forEach(entry -> values.add(entry.value));
+                        return values;
+                }
+                
+                void invalidate(K key) {
+                        stamps.incrementAndGet(stripe(key));
+                        entries.remove(key);
+                }
+                
+                CacheStats stats() {
+                        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+                }
+                
+                private static int stripe(Object key) {
+                        return (key.hashCode() & Integer.MAX_VALUE) % STAMP_STRIPES;
+                }
+                
+                private void evictIfFull() {
+                        if (entries.size() <= maxSize) {
+                                return;
+                        }
+                        synchronized (evictionLock) {
+                                int excess = entries.size() - maxSize * 9 / 10;
+                                if (entries.size() <= maxSize) {
+                                        return;
+                                }
+                                // access times are copied first so concurrent hits cannot reorder the sort
+                                List<Candidate<K, V>> candidates = new ArrayList<>(entries.size());
+                                entries.forEach((key, entry) -> candidates.add(new Candidate<>(key, entry, entry.lastAccess)));
+                                candidates.sort(Comparator.comparingLong(Candidate::lastAccess));
+                                for (int i = 0; i < excess && i < candidates.size(); i++) {
+                                        Candidate<K, V> oldest = candidates.get(i);
+                                        if (entries.remove(oldest.key(), oldest.entry())) {
+                                                evictions.increment();
+                                        }
+                                }
+                        }
+                }
+                
+                private static final class Entry<V> {
+                        
+                        final V value;
+                        volatile long lastAccess = System.nanoTime();
+                        
+                        Entry(V value) {
+                                this.value = value;
+                        }
+                }
+                
+                private record Candidate<K, V>(K key, Entry<V> entry, long lastAccess) {
+                }
+        }
+        
+        /**
+         * Copies the non-null properties of one {@link Game} onto another. The getter/setter pairs are
+         * looked up once and bound through {@link LambdaMetafactory}, so a copy makes no reflective calls.
+         */
+        private static final class GamePropertyCopier {
+                
+                private static final Set<String> MANAGED_PROPERTIES = Set.of("id", "version");
+                
+                private final List<Property> properties;
+                
+                private GamePropertyCopier(List<Property> properties) {
+                        this.properties = properties;
+                }
+                
+                static GamePropertyCopier create() {
+                        try {
+                                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                                List<Property> properties = new ArrayList<>();
+                                for (PropertyDescriptor descriptor : Introspector.getBeanInfo(Game.class, Object.class).getPropertyDescriptors()) {
+                                        if (descriptor.getReadMethod() != null && descriptor.getWriteMethod() != null) {
+                                                properties.add(new Property(descriptor.getName(),
+                                                                getter(lookup, descriptor.getReadMethod()),
+                                                                setter(lookup, descriptor.getWriteMethod())));
+                                        }
+                                }
+                                return new GamePropertyCopier(List.copyOf(properties));
+                        } catch (Throwable e) {
+                                throw new IllegalStateException("Could not build the property copier for Game", e);
+                        }
+                }
+                
+                void copyNonNullProperties(Game source, Game target) {
+                        for (Property property : properties) {
+                                Object value = property.getter().apply(source);
+                                if (value != null && !MANAGED_PROPERTIES.contains(property.name())) {
+                                        property.setter().accept(target, value);
+                                }
+                        }
+                }
+                
+                void forEachNonNullProperty(Game source, BiConsumer<String, Object> action) {
+                        for (Property property : properties) {
+                                Object value = property.getter().apply(source);
+                                if (value != null && !MANAGED_PROPERTIES.contains(property.name())) {
+                                        action.accept(property.name(), value);
+                                }
+                        }
+                }
+                
+                @SuppressWarnings("unchecked")
+                private static Function<Game, Object> getter(MethodHandles.Lookup lookup, Method method) throws Throwable {
+                        CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                                        MethodType.methodType(Function.class),
+                                        MethodType.methodType(Object.class, Object.class),
+                                        lookup.unreflect(method),
+                                        MethodType.methodType(boxed(method.getReturnType()), Game.class));
+                        return (Function<Game, Object>) site.getTarget().invokeExact();
+                }
+                
+                @SuppressWarnings("unchecked")
+                private static BiConsumer<Game, Object> setter(MethodHandles.Lookup lookup, Method method) throws Throwable {
+                        CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                                        MethodType.methodType(BiConsumer.class),
+                                        MethodType.methodType(void.class, Object.class, Object.class),
+                                        lookup.unreflect(method),
+                                        MethodType.methodType(void.class, Game.class, boxed(method.getParameterTypes()[0])));
+                        return (BiConsumer<Game, Object>) site.getTarget().invokeExact();
+                }
+                
+                private static Class<?> boxed(Class<?> type) {
+                        return MethodType.methodType(type).wrap().returnType();
+                }
+                
+                private record Property(String name, Function<Game, Object> getter, BiConsumer<Game, Object> setter) {
+                }
         }
 }
@@ -0,0 +1,430 @@
+package com.edsonmoreira.dslist.services;
+
+import com.edsonmoreira.dslist.dto.GameDTO;
+import com.edsonmoreira.dslist.dto.GameMinDTO;
+import com.edsonmoreira.dslist.projections.GameMinProjection;
+import com.edsonmoreira.dslist.services.GameService.Belonging;
+import com.edsonmoreira.dslist.services.GameService.CatalogSnapshot;
+import com.edsonmoreira.dslist.services.GameService.CompactCachedGame;
+import com.edsonmoreira.dslist.services.GameService.GameIdBitmap;
+import com.edsonmoreira.dslist.services.GameService.LruCache;
+import com.edsonmoreira.dslist.services.GameService.PlainCachedGame;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServiceHelpersTest {
+
+    private static List<Belonging> listAt(int... positions) {
+        List<Belonging> belongings = new ArrayList<>();
+        for (int i = 0; i < positions.length; i++) {
+            belongings.add(new Belonging(1L, 100L + i, positions[i]));
+        }
+        return belongings;
+    }
+
+    private static PlainCachedGame game(String shortDescription, String longDescription) {
+        return new PlainCachedGame(7L, 3L, "Mass Effect Trilogy", 2012, "Role-playing (RPG), Shooter",
+                "XBox, Playstation, PC", 4.8, "https://example.com/1.png", shortDescription, longDescription);
+    }
+
+    private static void assertSameGame(PlainCachedGame expected, GameDTO actual) {
+        assertEquals(expected.id(), actual.getId());
+        assertEquals(expected.title(), actual.getTitle());
+        assertEquals(expected.year(), actual.getYear());
+        assertEquals(expected.genre(), actual.getGenre());
+        assertEquals(expected.platforms(), actual.getPlatforms());
+        assertEquals(expected.score(), actual.getScore());
+        assertEquals(expected.imgUrl(), actual.getImgUrl());
+        assertEquals(expected.shortDescription(), actual.getShortDescription());
+        assertEquals(expected.longDescription(), actual.getLongDescription());
+    }
+
+    private static GameMinProjection row(Long id, String title, Integer year, String imgUrl, String shortDescription) {
+        return new GameMinProjection() {
+            public Long getId() { return id; }
+            public String getTitle() { return title; }
+            public Integer getGameYear() { return year; }
+            public String getImgUrl() { return imgUrl; }
+            public String getShortDescription() { return shortDescription; }
+            public Integer getPosition() { return null; }
+        };
+    }
+
+    private static List<GameMinDTO> writeAndOpen(GameMinProjection... rows) throws IOException {
+        Path file = Files.createTempFile("catalog", ".bin");
+        try {
+            CatalogSnapshot.write(List.of(rows).iterator(), file);
+            return CatalogSnapshot.open(file).games();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void sparseReorder_unchangedOrder_keepsEveryPosition() {
+        int[] positions = GameService.sparseReorderPositions(listAt(0, 1024, 2048), new int[] {0, 1, 2});
+
+        assertArrayEquals(new int[] {0, 1024, 2048}, positions);
+    }
+
+    @Test
+    void sparseReorder_reversedOrder_keepsOneGameAndPlacesTheRestBeforeIt() {
+        int[] positions = GameService.sparseReorderPositions(listAt(0, 1024, 2048, 3072, 4096),
+                new int[] {4, 3, 2, 1, 0});
+
+        assertArrayEquals(new int[] {-4096, -3072, -2048, -1024, 0}, positions);
+    }
+
+    @Test
+    void sparseReorder_headMovedToTail_onlyMovesThatGamePastTheLast() {
+        int[] positions = GameService.sparseReorderPositions(listAt(0, 1024, 2048, 3072, 4096),
+                new int[] {1, 2, 3, 4, 0});
+
+        assertArrayEquals(new int[] {1024, 2048, 3072, 4096, 5120}, positions);
+    }
+
+    @Test
+    void sparseReorder_tailMovedToHead_onlyMovesThatGameBeforeTheFirst() {
+        int[] positions = GameService.sparseReorderPositions(listAt(0, 1024, 2048, 3072, 4096),
+                new int[] {4, 0, 1, 2, 3});
+
+        assertArrayEquals(new int[] {-1024, 0, 1024, 2048, 3072}, positions);
+    }
+
+    @Test
+    void sparseReorder_runInsideWideGap_splitsTheGap() {
+        int[] positions = GameService.sparseReorderPositions(listAt(0, 1024, 2048), new int[] {0, 2, 1});
+
+        assertArrayEquals(new int[] {0, 512, 1024}, positions);
+    }
+
+    @Test
+    void sparseReorder_runThatDoesNotFitItsGap_respacesTheWholeList() {
+        int[] positions = GameService.sparseReorderPositions(listAt(0, 1, 2), new int[] {0, 2, 1});
+
+        assertArrayEquals(new int[] {0, 1024, 2048}, positions);
+    }
+
+    @Test
+    void sparseReorder_headMovedPastALastPositionNearTheIntLimit_respacesTheWholeList() {
+        int[] positions = GameService.sparseReorderPositions(listAt(0, 1024, Integer.MAX_VALUE - 100),
+                new int[] {1, 2, 0});
+
+        assertArrayEquals(new int[] {0, 1024, 2048}, positions);
+    }
+
+    @Test
+    void sparseReorder_gapWiderThanIntMax_splitsItWithoutOverflowing() {
+        int[] positions = GameService.sparseReorderPositions(listAt(Integer.MIN_VALUE, 0, Integer.MAX_VALUE),
+                new int[] {0, 2, 1});
+
+        assertArrayEquals(new int[] {Integer.MIN_VALUE, Integer.MIN_VALUE / 2, 0}, positions);
+    }
+
+    @Test
+    void sparseReorder_emptyList_returnsNoPositions() {
+        int[] positions = GameService.sparseReorderPositions(listAt(), new int[0]);
+
+        assertEquals(0, positions.length);
+    }
+
+    @Test
+    void idBitmap_reportsScannedIdsAndRejectsGapsBelowTheLimit() {
+        GameIdBitmap bitmap = new GameIdBitmap(5);
+        bitmap.addScanned(1);
+        bitmap.addScanned(2);
+        bitmap.addScanned(5);
+
+        assertTrue(bitmap.mightContain(1));
+        assertTrue(bitmap.mightContain(5));
+        assertFalse(bitmap.mightContain(3));
+        assertFalse(bitmap.mightContain(0));
+    }
+
+    @Test
+    void idBitmap_gapsAboveThePreviousScansMaximum_arePossiblyPresent() {
+        // ids 11..19 may still have been committing while this scan read past them
+        GameIdBitmap bitmap = new GameIdBitmap(10);
+        bitmap.addScanned(10);
+        bitmap.addScanned(20);
+
+        assertFalse(bitmap.mightContain(9));
+        assertTrue(bitmap.mightContain(15));
+        assertTrue(bitmap.mightContain(20));
+        assertEquals(20, bitmap.maxScannedId());
+    }
+
+    @Test
+    void idBitmap_idsAboveTheLimit_arePossiblyPresent() {
+        GameIdBitmap bitmap = new GameIdBitmap(10);
+        bitmap.addScanned(10);
+
+        assertTrue(bitmap.mightContain(11));
+        assertTrue(bitmap.mightContain(1_000_000));
+        assertTrue(bitmap.mightContain(Long.MAX_VALUE));
+    }
+
+    @Test
+    void idBitmap_firstBuild_rejectsNothing() {
+        GameIdBitmap bitmap = new GameIdBitmap(-1);
+        bitmap.addScanned(1);
+        bitmap.addScanned(5);
+
+        assertTrue(bitmap.mightContain(0));
+        assertTrue(bitmap.mightContain(3));
+        assertEquals(5, bitmap.maxScannedId());
+    }
+
+    @Test
+    void idBitmap_addedIdBelowTheLimit_isReported() {
+        GameIdBitmap bitmap = new GameIdBitmap(100);
+        bitmap.addScanned(100);
+        bitmap.add(50);
+
+        assertTrue(bitmap.mightContain(50));
+        assertFalse(bitmap.mightContain(51));
+    }
+
+    @Test
+    void idBitmap_growsPastItsInitialCapacity() {
+        GameIdBitmap bitmap = new GameIdBitmap(5_000_000);
+        bitmap.addScanned(3);
+        bitmap.addScanned(5_000_000);
+
+        assertTrue(bitmap.mightContain(3));
+        assertTrue(bitmap.mightContain(5_000_000));
+        assertFalse(bitmap.mightContain(4_999_999));
+    }
+
+    @Test
+    void idBitmap_negativeIds_arePossiblyPresent() {
+        GameIdBitmap bitmap = new GameIdBitmap(1);
+        bitmap.addScanned(1);
+
+        assertTrue(bitmap.mightContain(-1));
+    }
+
+    @Test
+    void compactGame_compressibleText_isDeflatedAndDecodesBack() {
+        PlainCachedGame plain = game("Short text.", "A long description. ".repeat(200));
+
+        CompactCachedGame compact = plain.compact();
+
+        assertEquals(CompactCachedGame.DEFLATED, compact.longDescription()[0]);
+        assertTrue(compact.longDescription().length < plain.longDescription().length());
+        assertSameGame(plain, compact.toDto());
+    }
+
+    @Test
+    void compactGame_shortText_isKeptRaw() {
+        PlainCachedGame plain = game("Ok", "Tiny");
+
+        CompactCachedGame compact = plain.compact();
+
+        assertEquals(CompactCachedGame.RAW, compact.shortDescription()[0]);
+        assertArrayEquals("Ok".getBytes(StandardCharsets.UTF_8),
+                Arrays.copyOfRange(compact.shortDescription(), 1, compact.shortDescription().length));
+        assertSameGame(plain, compact.toDto());
+    }
+
+    @Test
+    void compactGame_nonAsciiText_decodesBack() {
+        PlainCachedGame plain = game("Ação e aventura", "Um jogo de ação épico, com história longa. ".repeat(50));
+
+        assertSameGame(plain, plain.compact().toDto());
+    }
+
+    @Test
+    void compactGame_nullFields_roundTrip() {
+        PlainCachedGame plain = new PlainCachedGame(9L, null, null, null, null, null, null, null, null, null);
+
+        CompactCachedGame compact = plain.compact();
+
+        assertNull(compact.shortDescription());
+        assertNull(compact.longDescription());
+        assertSameGame(plain, compact.toDto());
+    }
+
+    @Test
+    void compactGame_repeatedDecodesOnOneThread_reuseTheInflater() {
+        CompactCachedGame first = game("a", "First description. ".repeat(100)).compact();
+        CompactCachedGame second = game("b", "Second description. ".repeat(100)).compact();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("First description. ".repeat(100), first.toDto().getLongDescription());
+            assertEquals("Second description. ".repeat(100), second.toDto().getLongDescription());
+        }
+    }
+
+    @Test
+    void compactGame_writeToAndReadFrom_roundTrip() throws Exception {
+        PlainCachedGame plain = game("Short text.", "A long description. ".repeat(200));
+        PlainCachedGame nulls = new PlainCachedGame(9L, null, null, null, null, null, null, null, null, null);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            plain.compact().writeTo(out);
+            nulls.compact().writeTo(out);
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            CompactCachedGame read = CompactCachedGame.readFrom(in, bytes.size());
+            assertEquals(plain.version(), read.version());
+            assertSameGame(plain, read.toDto());
+
+            CompactCachedGame readNulls = CompactCachedGame.readFrom(in, bytes.size());
+            assertNull(readNulls.version());
+            assertSameGame(nulls, readNulls.toDto());
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    void compactGame_readFrom_rejectsALengthLongerThanTheInput() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(1L);
+            out.writeBoolean(false);
+            out.writeInt(Integer.MAX_VALUE);
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertThrows(IOException.class, () -> CompactCachedGame.readFrom(in, bytes.size()));
+        }
+    }
+
+    @Test
+    void plainGame_everyHit_getsItsOwnDto() {
+        PlainCachedGame plain = game("Short text.", "Long text.");
+
+        GameDTO first = plain.toDto();
+        first.setTitle("changed");
+
+        assertNotSame(first, plain.toDto());
+        assertEquals("Mass Effect Trilogy", plain.toDto().getTitle());
+    }
+
+    @Test
+    void catalogSnapshot_rowsReadBackInOrder() throws Exception {
+        List<GameMinDTO> games = writeAndOpen(
+                row(1L, "Mass Effect Trilogy", 2012, "https://example.com/1.png", "Short one."),
+                row(2L, "Red Dead Redemption 2", 2018, "https://example.com/2.png", "Short two."));
+
+        assertEquals(2, games.size());
+        assertEquals(2L, games.get(1).getId());
+        assertEquals("Red Dead Redemption 2", games.get(1).getTitle());
+        assertEquals(2018, games.get(1).getYear());
+        assertEquals("https://example.com/2.png", games.get(1).getImgUrl());
+        assertEquals("Short two.", games.get(1).getShortDescription());
+        assertEquals("Mass Effect Trilogy", games.get(0).getTitle());
+    }
+
+    @Test
+    void catalogSnapshot_nullYearAndTexts_readBackAsNull() throws Exception {
+        List<GameMinDTO> games = writeAndOpen(row(3L, null, null, null, null), row(4L, "", 1999, "", "Ação"));
+
+        assertNull(games.get(0).getTitle());
+        assertNull(games.get(0).getYear());
+        assertNull(games.get(0).getImgUrl());
+        assertNull(games.get(0).getShortDescription());
+        assertEquals("", games.get(1).getTitle());
+        assertEquals("Ação", games.get(1).getShortDescription());
+    }
+
+    @Test
+    void catalogSnapshot_emptyCatalog_hasNoRows() throws Exception {
+        List<GameMinDTO> games = writeAndOpen();
+
+        assertEquals(0, games.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> games.get(0));
+    }
+
+    @Test
+    void catalogSnapshot_openRejectsOtherFiles() throws Exception {
+        Path file = Files.createTempFile("catalog", ".bin");
+        try {
+            Files.write(file, "not a catalog snapshot".getBytes(StandardCharsets.UTF_8));
+
+            assertThrows(IOException.class, () -> CatalogSnapshot.open(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void lruCache_entryRejectedByTheCaller_countsAsAMiss() {
+        LruCache<Long, String> cache = new LruCache<>(10);
+        cache.put(1L, "old");
+
+        assertNull(cache.get(1L, value -> value.equals("new")));
+        assertEquals("old", cache.get(1L, value -> value.equals("old")));
+
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void lruCache_recheck_leavesTheCountsAlone() {
+        LruCache<Long, String> cache = new LruCache<>(10);
+        assertNull(cache.get(1L));
+        cache.put(1L, "loaded");
+
+        assertEquals("loaded", cache.recheck(1L));
+        assertNull(cache.recheck(2L));
+
+        assertEquals(0, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void lruCache_invalidatedKey_rejectsALoadStartedBeforeTheWrite() {
+        LruCache<Long, String> cache = new LruCache<>(10);
+        long stamp = cache.stamp(1L);
+
+        cache.invalidate(1L);
+        cache.putIfUnchanged(1L, "stale", stamp);
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void lruCache_invalidatingOneKey_doesNotRejectLoadsOfOthers() {
+        LruCache<Long, String> cache = new LruCache<>(10);
+        long stamp = cache.stamp(2L);
+
+        cache.invalidate(1L);
+        cache.putIfUnchanged(2L, "fresh", stamp);
+
+        assertEquals("fresh", cache.get(2L));
+    }
+
+    @Test
+    void lruCache_whenFull_evictsTheLeastRecentlyReadEntries() throws Exception {
+        LruCache<Long, String> cache = new LruCache<>(10);
+        for (long id = 0; id < 10; id++) {
+            cache.put(id, "game " + id);
+        }
+        Thread.sleep(1);
+        cache.get(0L);
+
+        cache.put(10L, "game 10");
+
+        assertEquals("game 0", cache.get(0L));
+        assertEquals("game 10", cache.get(10L));
+        assertNull(cache.get(1L));
+        assertEquals(9, cache.stats().size());
+        assertEquals(2, cache.stats().evictions());
+    }
+}
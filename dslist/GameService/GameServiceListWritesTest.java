@@ -0,0 +1,275 @@
+package com.edsonmoreira.dslist.services;
+
+import com.edsonmoreira.dslist.repositories.GameListRepository;
+import com.edsonmoreira.dslist.repositories.GameRepository;
+import com.edsonmoreira.dslist.services.GameService.Belonging;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GameServiceListWritesTest {
+
+    @Mock
+    private GameRepository gameRepository;
+
+    @Mock
+    private GameListRepository gameListRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private GameService service;
+
+    private static List<Belonging> list(long listId, long... gameIds) {
+        List<Belonging> belongings = new ArrayList<>();
+        for (int i = 0; i < gameIds.length; i++) {
+            belongings.add(new Belonging(listId, gameIds[i], i));
+        }
+        return belongings;
+    }
+
+    private void givenListRows(long listId, List<Belonging> rows) {
+        when(jdbcTemplate.query(contains("WHERE list_id = ? ORDER BY position"), eq(Belonging.MAPPER), eq(listId)))
+                .thenReturn(rows);
+    }
+
+    private void givenSparse(long listId) {
+        when(jdbcTemplate.queryForList(contains("sparse_positions"), eq(Boolean.class), eq(listId)))
+                .thenReturn(List.of(true));
+    }
+
+    private void givenRowAt(long listId, int index, Belonging row) {
+        when(jdbcTemplate.query(contains("LIMIT ? OFFSET ?"), eq(Belonging.MAPPER), eq(listId), eq(1), eq(index)))
+                .thenReturn(List.of(row));
+    }
+
+    private List<List<Object>> batch(String sqlPrefix) {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeast(0)).batchUpdate(startsWith(sqlPrefix), rows.capture());
+        List<List<Object>> all = new ArrayList<>();
+        rows.getAllValues().forEach(call -> call.forEach(row -> all.add(Arrays.asList(row))));
+        return all;
+    }
+
+    @Test
+    void testDeleteGames_groupsByListAndShiftsOnlyTheRowsAfterEachRemoval() {
+        when(jdbcTemplate.query(contains("WHERE game_id IN"), eq(Belonging.MAPPER), eq(11L), eq(13L), eq(21L)))
+                .thenReturn(List.of(new Belonging(1L, 11L, 1), new Belonging(1L, 13L, 3), new Belonging(2L, 21L, 0)));
+        givenListRows(1L, list(1L, 10L, 11L, 12L, 13L, 14L));
+        givenListRows(2L, list(2L, 21L, 22L, 23L));
+
+        int rewritten = service.deleteGames(List.of(11L, 13L, 21L));
+
+        assertEquals(4, rewritten);
+        verify(gameListRepository).lockById(1L);
+        verify(gameListRepository).lockById(2L);
+        assertEquals(List.of(List.of(1L, 11L), List.of(1L, 13L), List.of(2L, 21L)), batch("DELETE"));
+        assertEquals(List.of(List.of(1, 1L, 12L), List.of(2, 1L, 14L), List.of(0, 2L, 22L), List.of(1, 2L, 23L)),
+                batch("UPDATE"));
+    }
+
+    @Test
+    void testDeleteGames_removingTheLastRow_rewritesNothing() {
+        when(jdbcTemplate.query(contains("WHERE game_id IN"), eq(Belonging.MAPPER), eq(12L)))
+                .thenReturn(List.of(new Belonging(1L, 12L, 2)));
+        givenListRows(1L, list(1L, 10L, 11L, 12L));
+
+        int rewritten = service.deleteGames(List.of(12L));
+
+        assertEquals(0, rewritten);
+        assertEquals(List.of(List.of(1L, 12L)), batch("DELETE"));
+        assertEquals(List.of(), batch("UPDATE"));
+    }
+
+    @Test
+    void testDeleteGames_sparseList_deletesWithoutShifting() {
+        when(jdbcTemplate.query(contains("WHERE game_id IN"), eq(Belonging.MAPPER), eq(10L)))
+                .thenReturn(List.of(new Belonging(1L, 10L, 0)));
+        givenSparse(1L);
+        givenListRows(1L, List.of(new Belonging(1L, 10L, 0), new Belonging(1L, 11L, 1024), new Belonging(1L, 12L, 2048)));
+
+        int rewritten = service.deleteGames(List.of(10L));
+
+        assertEquals(0, rewritten);
+        assertEquals(List.of(List.of(1L, 10L)), batch("DELETE"));
+        assertEquals(List.of(), batch("UPDATE"));
+    }
+
+    @Test
+    void testDeleteGames_gamesInNoList_touchNoList() {
+        when(jdbcTemplate.query(contains("WHERE game_id IN"), eq(Belonging.MAPPER), eq(99L))).thenReturn(List.of());
+
+        int rewritten = service.deleteGames(List.of(99L));
+
+        assertEquals(0, rewritten);
+        verifyNoInteractions(gameListRepository);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void testMoveGame_positionsFromOne_movesBetweenTheStoredPositions() {
+        when(gameListRepository.countBelongingsByList(1L)).thenReturn(5);
+        givenRowAt(1L, 1, new Belonging(1L, 11L, 2));
+        givenRowAt(1L, 3, new Belonging(1L, 13L, 4));
+        when(gameListRepository.moveBelonging(1L, 2, 4, 2, 4)).thenReturn(3);
+
+        service.moveGame(1L, 1, 3);
+
+        verify(gameListRepository).lockById(1L);
+        verify(gameListRepository).moveBelonging(1L, 2, 4, 2, 4);
+    }
+
+    @Test
+    void testMoveGame_positionsFromZero_movesBetweenTheStoredPositions() {
+        when(gameListRepository.countBelongingsByList(1L)).thenReturn(5);
+        givenRowAt(1L, 4, new Belonging(1L, 14L, 4));
+        givenRowAt(1L, 0, new Belonging(1L, 10L, 0));
+        when(gameListRepository.moveBelonging(1L, 4, 0, 0, 4)).thenReturn(5);
+
+        service.moveGame(1L, 4, 0);
+
+        verify(gameListRepository).moveBelonging(1L, 4, 0, 0, 4);
+    }
+
+    @Test
+    void testMoveGame_listWithAHole_usesTheRowActuallyAtTheIndex() {
+        // numbered from 0, then appended at COUNT + 1, leaving position 5 empty
+        when(gameListRepository.countBelongingsByList(1L)).thenReturn(6);
+        givenRowAt(1L, 5, new Belonging(1L, 16L, 6));
+        givenRowAt(1L, 2, new Belonging(1L, 12L, 2));
+        when(gameListRepository.moveBelonging(1L, 6, 2, 2, 6)).thenReturn(4);
+
+        service.moveGame(1L, 5, 2);
+
+        verify(gameListRepository).moveBelonging(1L, 6, 2, 2, 6);
+    }
+
+    @Test
+    void testMoveGame_indexPastTheEnd_throwsBeforeTouchingRows() {
+        when(gameListRepository.countBelongingsByList(1L)).thenReturn(3);
+
+        assertThrows(IllegalArgumentException.class, () -> service.moveGame(1L, 0, 3));
+        assertThrows(IllegalArgumentException.class, () -> service.moveGame(1L, -1, 1));
+
+        verify(gameListRepository, never()).moveBelonging(anyLong(), anyInt(), anyInt(), anyInt(), anyInt());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testMoveGame_sameIndex_writesNothing() {
+        when(gameListRepository.countBelongingsByList(1L)).thenReturn(3);
+
+        service.moveGame(1L, 2, 2);
+
+        verify(gameListRepository, never()).moveBelonging(anyLong(), anyInt(), anyInt(), anyInt(), anyInt());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testMoveGame_sparseListToTheTail_writesOnlyTheMovedRowPastTheLast() {
+        when(gameListRepository.countBelongingsByList(1L)).thenReturn(3);
+        givenSparse(1L);
+        givenRowAt(1L, 0, new Belonging(1L, 10L, 0));
+        when(jdbcTemplate.query(contains("LIMIT ? OFFSET ?"), eq(Belonging.MAPPER), eq(1L), eq(2), eq(2)))
+                .thenReturn(List.of(new Belonging(1L, 12L, 2048)));
+
+        service.moveGame(1L, 0, 2);
+
+        verify(jdbcTemplate).update(startsWith("UPDATE tb_belonging SET position"), eq(3072), eq(1L), eq(10L));
+        verify(gameListRepository, never()).moveBelonging(anyLong(), anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testMoveGame_sparseMovePastTheIntLimit_rebalancesAndRetries() {
+        when(gameListRepository.countBelongingsByList(1L)).thenReturn(3);
+        givenSparse(1L);
+        givenRowAt(1L, 0, new Belonging(1L, 10L, 0));
+        when(jdbcTemplate.query(contains("LIMIT ? OFFSET ?"), eq(Belonging.MAPPER), eq(1L), eq(2), eq(2)))
+                .thenReturn(List.of(new Belonging(1L, 12L, Integer.MAX_VALUE - 100)))
+                .thenReturn(List.of(new Belonging(1L, 12L, 2048)));
+        givenListRows(1L, List.of(new Belonging(1L, 10L, 0), new Belonging(1L, 11L, 1024),
+                new Belonging(1L, 12L, Integer.MAX_VALUE - 100)));
+
+        service.moveGame(1L, 0, 2);
+
+        assertEquals(List.of(List.of(2048, 1L, 12L)), batch("UPDATE"));
+        verify(jdbcTemplate).update(startsWith("UPDATE tb_belonging SET position"), eq(3072), eq(1L), eq(10L));
+    }
+
+    @Test
+    void testReorderList_swapInADenseList_rewritesOnlyTheSwappedRows() {
+        givenListRows(1L, list(1L, 10L, 11L, 12L, 13L));
+
+        int rewritten = service.reorderList(1L, List.of(10L, 13L, 12L, 11L));
+
+        assertEquals(2, rewritten);
+        verify(gameListRepository).lockById(1L);
+        assertEquals(List.of(List.of(1, 1L, 13L), List.of(3, 1L, 11L)), batch("UPDATE"));
+    }
+
+    @Test
+    void testReorderList_denseListWithAHole_reusesTheStoredSlots() {
+        givenListRows(1L, List.of(new Belonging(1L, 10L, 1), new Belonging(1L, 11L, 2), new Belonging(1L, 12L, 4)));
+
+        int rewritten = service.reorderList(1L, List.of(12L, 10L, 11L));
+
+        assertEquals(3, rewritten);
+        assertEquals(List.of(List.of(1, 1L, 12L), List.of(2, 1L, 10L), List.of(4, 1L, 11L)), batch("UPDATE"));
+    }
+
+    @Test
+    void testReorderList_unchangedOrder_rewritesNothing() {
+        givenListRows(1L, list(1L, 10L, 11L, 12L));
+
+        int rewritten = service.reorderList(1L, List.of(10L, 11L, 12L));
+
+        assertEquals(0, rewritten);
+        assertEquals(List.of(), batch("UPDATE"));
+    }
+
+    @Test
+    void testReorderList_gameNotInTheList_throwsWithoutWriting() {
+        givenListRows(1L, list(1L, 10L, 11L));
+
+        assertThrows(IllegalArgumentException.class, () -> service.reorderList(1L, List.of(11L, 99L)));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void testReorderList_repeatedGame_throwsWithoutWriting() {
+        givenListRows(1L, list(1L, 10L, 11L));
+
+        assertThrows(IllegalArgumentException.class, () -> service.reorderList(1L, List.of(10L, 10L)));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void testReorderList_missingGames_throwsWithoutWriting() {
+        givenListRows(1L, list(1L, 10L, 11L, 12L));
+
+        assertThrows(IllegalArgumentException.class, () -> service.reorderList(1L, List.of(12L, 10L)));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+}